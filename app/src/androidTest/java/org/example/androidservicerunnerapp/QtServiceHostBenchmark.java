@@ -0,0 +1,373 @@
+package org.example.androidservicerunnerapp;
+
+import android.Manifest;
+import android.app.ActivityManager;
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.qtproject.qtservice.QtServiceHost;
+import org.qtproject.qtservice.StatusClient;
+import org.qtproject.qtservice.StatusPublisher;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares in-process and isolated-process hosting of the Qt service.
+ * Measures startup time, command latency, pipelined command throughput, status event
+ * throughput (StatusPublisher to StatusClient at the 60 Hz limit) and total PSS.
+ *
+ * Each mode must run in its own instrumentation invocation: once the in-process run has
+ * loaded qtservice-jni and the Qt runtime into this process, they stay loaded and would
+ * inflate the isolated run's PSS. Run once per mode:
+ *   ./gradlew :app:connectedDebugAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.class=org.example.androidservicerunnerapp.QtServiceHostBenchmark \
+ *       -Pandroid.testInstrumentationRunnerArguments.hostMode=in_process   (then =isolated)
+ * Without hostMode the benchmark is skipped. Results are logged under the
+ * "QtServiceBenchmark" tag and reported as instrumentation status.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QtServiceHostBenchmark {
+    private static final String TAG = "QtServiceBenchmark";
+    private static final String ISOLATED_PROCESS_SUFFIX = ":qtservice";
+    private static final String ARG_HOST_MODE = "hostMode";
+    private static final String JNI_LIBRARY = "libqtservice-jni.so";
+
+    private static final long STARTUP_TIMEOUT_MS = 30000;
+    private static final long STOP_SETTLE_MS = 1500;
+    private static final int WARMUP_PINGS = 50;
+    private static final int LATENCY_PINGS = 500;
+    private static final int THROUGHPUT_PINGS = 5000;
+    private static final int EVENT_BURST_MS = 3000;
+    private static final int MAX_RATE_HZ = 60;
+    private static final String EVENT_CLIENT_NAME = TAG + ".events";
+
+    private Instrumentation instrumentation;
+    private Context context;
+    private Handler mainHandler;
+    private QtServiceHost host;
+    private StatusClient statusClient;
+    private StatusClient eventClient;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        context = instrumentation.getTargetContext();
+        mainHandler = new Handler(Looper.getMainLooper());
+
+        // Without it the service never calls startForeground() and gets killed
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            instrumentation.getUiAutomation().grantRuntimePermission(
+                    context.getPackageName(), Manifest.permission.POST_NOTIFICATIONS);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (statusClient != null) {
+            instrumentation.runOnMainSync(statusClient::disconnect);
+        }
+        if (eventClient != null) {
+            instrumentation.runOnMainSync(eventClient::disconnect);
+        }
+        if (host != null) {
+            instrumentation.runOnMainSync(host::disconnect);
+            host.stop();
+            SystemClock.sleep(STOP_SETTLE_MS);
+        }
+    }
+
+    @Test
+    public void benchmark() throws InterruptedException, IOException {
+        String modeArg = InstrumentationRegistry.getArguments().getString(ARG_HOST_MODE);
+        assumeTrue("Pass -e " + ARG_HOST_MODE + " in_process|isolated to run the benchmark", modeArg != null);
+        QtServiceHost.Mode mode = QtServiceHost.Mode.parse(modeArg, null);
+        assertNotNull("Unknown " + ARG_HOST_MODE + ": " + modeArg, mode);
+
+        if (mode == QtServiceHost.Mode.ISOLATED_PROCESS) {
+            assertFalse(JNI_LIBRARY + " is already loaded in the instrumentation process; run each mode separately",
+                    isJniLibraryLoaded());
+        }
+        runSuite(mode);
+        if (mode == QtServiceHost.Mode.ISOLATED_PROCESS) {
+            assertFalse("Isolated mode loaded " + JNI_LIBRARY + " into the app process", isJniLibraryLoaded());
+        }
+    }
+
+    private void runSuite(QtServiceHost.Mode mode) throws InterruptedException {
+        host = QtServiceHost.create(context, mode);
+        ensureStopped();
+
+        Bundle results = new Bundle();
+        results.putString("mode", mode.name());
+
+        long baselinePssKb = totalPssKb();
+        results.putLong("startupMs", measureStartupMs());
+
+        // Let lazily-allocated runtime state settle before sampling memory
+        SystemClock.sleep(STOP_SETTLE_MS);
+        long pssKb = totalPssKb();
+        results.putLong("baselinePssKb", baselinePssKb);
+        results.putLong("totalPssKb", pssKb);
+        results.putLong("servicePssKb", pssKb - baselinePssKb);
+
+        connectHost();
+        runPings(WARMUP_PINGS);
+        long[] latenciesNs = runPings(LATENCY_PINGS);
+        Arrays.sort(latenciesNs);
+        results.putDouble("latencyP50Us", latenciesNs[latenciesNs.length / 2] / 1000.0);
+        results.putDouble("latencyP95Us", latenciesNs[latenciesNs.length * 95 / 100] / 1000.0);
+        results.putDouble("latencyP99Us", latenciesNs[latenciesNs.length * 99 / 100] / 1000.0);
+
+        results.putDouble("commandThroughputPerSec", measureThroughputPerSec());
+        measureEventThroughput(results);
+
+        Log.i(TAG, "Results: " + results);
+        instrumentation.sendStatus(0, results);
+    }
+
+    private void ensureStopped() {
+        host.stop();
+        if (host.getMode() == QtServiceHost.Mode.ISOLATED_PROCESS) {
+            // Measure a cold start of the ":qtservice" process; we share its uid so we may kill it
+            for (ActivityManager.RunningAppProcessInfo info : runningAppProcesses()) {
+                if (info.processName.endsWith(ISOLATED_PROCESS_SUFFIX)) {
+                    Process.killProcess(info.pid);
+                }
+            }
+        }
+        SystemClock.sleep(STOP_SETTLE_MS);
+    }
+
+    /**
+     * Time from start() until the service reports RUNNING. Fails on ERROR, since numbers
+     * from a service whose native library didn't load or start are meaningless.
+     */
+    private long measureStartupMs() throws InterruptedException {
+        CountDownLatch settled = new CountDownLatch(1);
+        AtomicLong settledAt = new AtomicLong();
+        AtomicReference<String> settledState = new AtomicReference<>();
+        instrumentation.runOnMainSync(() -> {
+            statusClient = host.newStatusClient(StatusPublisher.TOPIC_LIFECYCLE, MAX_RATE_HZ, (changed, snapshot) -> {
+                String state = snapshot.getString(StatusPublisher.KEY_STATE);
+                if (StatusPublisher.STATE_RUNNING.equals(state) || StatusPublisher.STATE_ERROR.equals(state)) {
+                    if (settledAt.compareAndSet(0, SystemClock.elapsedRealtimeNanos())) {
+                        settledState.set(state);
+                    }
+                    settled.countDown();
+                }
+            });
+            // Binds without auto-create, so this waits for start() below
+            statusClient.setClientName(TAG);
+            statusClient.connect();
+        });
+
+        long startedAt = SystemClock.elapsedRealtimeNanos();
+        host.start();
+        assertTrue(host.getMode() + " service did not start", settled.await(STARTUP_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(host.getMode() + " service failed to start; check the native library in logcat",
+                StatusPublisher.STATE_RUNNING, settledState.get());
+        return TimeUnit.NANOSECONDS.toMillis(settledAt.get() - startedAt);
+    }
+
+    private void connectHost() throws InterruptedException {
+        CountDownLatch connected = new CountDownLatch(1);
+        instrumentation.runOnMainSync(() -> host.connect(connected::countDown));
+        assertTrue(host.getMode() + " host did not connect", connected.await(STARTUP_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Sends {@code count} pings one after another and returns each round trip in nanoseconds.
+     */
+    private long[] runPings(int count) throws InterruptedException {
+        long[] latenciesNs = new long[count];
+        CountDownLatch done = new CountDownLatch(1);
+        Runnable[] next = new Runnable[1];
+        AtomicInteger index = new AtomicInteger();
+
+        next[0] = () -> {
+            long sentAt = SystemClock.elapsedRealtimeNanos();
+            host.ping(() -> {
+                int i = index.getAndIncrement();
+                latenciesNs[i] = SystemClock.elapsedRealtimeNanos() - sentAt;
+                if (i + 1 < count) {
+                    // Posted so in-process replies don't recurse
+                    mainHandler.post(next[0]);
+                } else {
+                    done.countDown();
+                }
+            });
+        };
+        mainHandler.post(next[0]);
+
+        assertTrue(host.getMode() + " pings timed out", done.await(STARTUP_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        return latenciesNs;
+    }
+
+    /**
+     * Sends a burst of pings without waiting for replies and returns replies per second.
+     */
+    private double measureThroughputPerSec() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(THROUGHPUT_PINGS);
+        AtomicLong startedAt = new AtomicLong();
+        instrumentation.runOnMainSync(() -> {
+            startedAt.set(SystemClock.elapsedRealtimeNanos());
+            for (int i = 0; i < THROUGHPUT_PINGS; i++) {
+                host.ping(done::countDown);
+            }
+        });
+
+        assertTrue(host.getMode() + " throughput run timed out", done.await(STARTUP_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        long elapsedNs = SystemClock.elapsedRealtimeNanos() - startedAt.get();
+        return THROUGHPUT_PINGS / (elapsedNs / 1e9);
+    }
+
+    /**
+     * Has the service publish TOPIC_BENCHMARK updates as fast as it can for EVENT_BURST_MS while
+     * one subscriber receives them at the 60 Hz limit. Reports status batches and deltas delivered
+     * per second, updates published per second, and the deltas the publisher conflated away.
+     */
+    private void measureEventThroughput(Bundle results) throws InterruptedException {
+        CountDownLatch burstEnded = new CountDownLatch(1);
+        AtomicInteger batches = new AtomicInteger();
+        AtomicInteger deltas = new AtomicInteger();
+        AtomicInteger lastSeq = new AtomicInteger();
+        instrumentation.runOnMainSync(() -> {
+            eventClient = host.newStatusClient(StatusPublisher.TOPIC_BENCHMARK, MAX_RATE_HZ, (changed, snapshot) -> {
+                batches.incrementAndGet();
+                deltas.addAndGet(changed.size());
+                if (changed.containsKey(StatusPublisher.KEY_BURST_END)) {
+                    lastSeq.set(changed.getInt(StatusPublisher.KEY_BURST_END));
+                    burstEnded.countDown();
+                }
+            });
+            eventClient.setClientName(EVENT_CLIENT_NAME);
+            eventClient.connect();
+        });
+        awaitConnected(eventClient);
+
+        AtomicLong startedAt = new AtomicLong();
+        instrumentation.runOnMainSync(() -> {
+            startedAt.set(SystemClock.elapsedRealtimeNanos());
+            // Sent after MSG_SUBSCRIBE on the same Messenger, so the subscriber sees the whole burst
+            eventClient.requestPublishBurst(EVENT_BURST_MS);
+        });
+        assertTrue(host.getMode() + " event burst did not finish; is this a debuggable build?",
+                burstEnded.await(EVENT_BURST_MS + STARTUP_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        double elapsedSec = (SystemClock.elapsedRealtimeNanos() - startedAt.get()) / 1e9;
+
+        results.putDouble("eventBatchesPerSec", batches.get() / elapsedSec);
+        results.putDouble("eventDeltasPerSec", deltas.get() / elapsedSec);
+        results.putDouble("eventsPublishedPerSec", lastSeq.get() / (EVENT_BURST_MS / 1000.0));
+        results.putLong("eventDroppedDeltas", requestDroppedDeltas());
+    }
+
+    private void awaitConnected(StatusClient client) throws InterruptedException {
+        long deadline = SystemClock.elapsedRealtime() + STARTUP_TIMEOUT_MS;
+        AtomicBoolean connected = new AtomicBoolean();
+        while (SystemClock.elapsedRealtime() < deadline) {
+            instrumentation.runOnMainSync(() -> connected.set(client.isConnected()));
+            if (connected.get()) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError(host.getMode() + " status client did not connect");
+    }
+
+    private long requestDroppedDeltas() throws InterruptedException {
+        CountDownLatch received = new CountDownLatch(1);
+        AtomicLong dropped = new AtomicLong(-1);
+        instrumentation.runOnMainSync(() -> eventClient.requestMetrics(metrics -> {
+            for (String clientId : metrics.keySet()) {
+                Bundle subscriber = metrics.getBundle(clientId);
+                if (EVENT_CLIENT_NAME.equals(subscriber.getString(StatusPublisher.METRIC_CLIENT_NAME))) {
+                    dropped.set(subscriber.getLong(StatusPublisher.METRIC_DROPPED_DELTAS));
+                }
+            }
+            received.countDown();
+        }));
+        assertTrue(host.getMode() + " metrics request timed out", received.await(STARTUP_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        return dropped.get();
+    }
+
+    /**
+     * Sum of PSS over every process of this app (main process plus ":qtservice" if running).
+     * Our own process is sampled via Debug, which unlike getProcessMemoryInfo() is not rate-limited.
+     */
+    private long totalPssKb() {
+        Debug.MemoryInfo own = new Debug.MemoryInfo();
+        Debug.getMemoryInfo(own);
+        long totalKb = own.getTotalPss();
+
+        List<Integer> otherPids = new ArrayList<>();
+        for (ActivityManager.RunningAppProcessInfo info : runningAppProcesses()) {
+            if (info.pid != Process.myPid()) {
+                otherPids.add(info.pid);
+            }
+        }
+        if (otherPids.isEmpty()) {
+            return totalKb;
+        }
+
+        int[] pids = new int[otherPids.size()];
+        for (int i = 0; i < pids.length; i++) {
+            pids[i] = otherPids.get(i);
+        }
+        ActivityManager manager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        for (Debug.MemoryInfo info : manager.getProcessMemoryInfo(pids)) {
+            totalKb += info.getTotalPss();
+        }
+        return totalKb;
+    }
+
+    private static boolean isJniLibraryLoaded() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader("/proc/self/maps"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.endsWith(JNI_LIBRARY)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<ActivityManager.RunningAppProcessInfo> runningAppProcesses() {
+        ActivityManager manager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        List<ActivityManager.RunningAppProcessInfo> processes = manager.getRunningAppProcesses();
+        return processes != null ? processes : Collections.<ActivityManager.RunningAppProcessInfo>emptyList();
+    }
+}
@@ -0,0 +1,133 @@
+package org.qtproject.qtservice;
+
+import android.os.Bundle;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(AndroidJUnit4.class)
+public class ServiceConfigTest {
+
+    private static ServiceConfig.Builder valid() {
+        return ServiceConfig.DEFAULT.toBuilder().setVersion(1);
+    }
+
+    private static void assertInvalid(ServiceConfig.Builder builder, String field) {
+        try {
+            builder.build();
+            fail("Expected " + field + " to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(field));
+        }
+    }
+
+    @Test
+    public void buildRejectsOutOfRangeValues() {
+        assertInvalid(valid().setVersion(-1), ServiceConfig.KEY_VERSION);
+        assertInvalid(valid().setTimerIntervalMs(0), ServiceConfig.KEY_TIMER_INTERVAL_MS);
+        assertInvalid(valid().setWorkerCount(0), ServiceConfig.KEY_WORKER_COUNT);
+        assertInvalid(valid().setQueueSize(-5), ServiceConfig.KEY_QUEUE_SIZE);
+    }
+
+    @Test
+    public void buildRejectsUnknownLogLevel() {
+        assertInvalid(valid().setLogLevel("verbose"), ServiceConfig.KEY_LOG_LEVEL);
+        assertInvalid(valid().setLogLevel(null), ServiceConfig.KEY_LOG_LEVEL);
+        assertEquals(ServiceConfig.LOG_LEVEL_CRITICAL,
+                valid().setLogLevel(ServiceConfig.LOG_LEVEL_CRITICAL).build().getLogLevel());
+    }
+
+    @Test
+    public void diffListsChangedKeysAndIgnoresVersion() {
+        ServiceConfig base = valid().build();
+        assertEquals(Collections.emptyList(), base.toBuilder().setVersion(7).build().diff(base));
+
+        ServiceConfig update = base.toBuilder()
+                .setVersion(2)
+                .setTimerIntervalMs(250)
+                .setQueueSize(128)
+                .build();
+        assertEquals(Arrays.asList(ServiceConfig.KEY_TIMER_INTERVAL_MS, ServiceConfig.KEY_QUEUE_SIZE), update.diff(base));
+    }
+
+    @Test
+    public void restartRequiredKeysOnlyListsNonLiveChanges() {
+        ServiceConfig base = valid().build();
+
+        ServiceConfig live = base.toBuilder()
+                .setVersion(2)
+                .setTimerIntervalMs(250)
+                .setLogLevel(ServiceConfig.LOG_LEVEL_DEBUG)
+                .setWorkerCount(4)
+                .build();
+        assertEquals(Collections.emptyList(), live.restartRequiredKeys(base));
+
+        ServiceConfig mixed = live.toBuilder().setQueueSize(base.getQueueSize() * 2).build();
+        assertEquals(Collections.singletonList(ServiceConfig.KEY_QUEUE_SIZE), mixed.restartRequiredKeys(base));
+    }
+
+    @Test
+    public void describeChangeShowsOldAndNewValue() {
+        ServiceConfig base = valid().build();
+        ServiceConfig update = base.toBuilder().setVersion(2).setQueueSize(128).build();
+        assertEquals("queueSize: 64 -> 128", update.describeChange(base, ServiceConfig.KEY_QUEUE_SIZE));
+    }
+
+    @Test
+    public void fromBundleRoundTrips() {
+        ServiceConfig config = valid()
+                .setTimerIntervalMs(500)
+                .setLogLevel(ServiceConfig.LOG_LEVEL_WARNING)
+                .setWorkerCount(3)
+                .setQueueSize(32)
+                .build();
+        ServiceConfig copy = ServiceConfig.fromBundle(config.toBundle(), ServiceConfig.DEFAULT);
+        assertEquals(config.toJson(), copy.toJson());
+    }
+
+    @Test
+    public void fromBundleKeepsMissingKeysFromBase() {
+        ServiceConfig base = valid()
+                .setLogLevel(ServiceConfig.LOG_LEVEL_DEBUG)
+                .setWorkerCount(3)
+                .setQueueSize(32)
+                .build();
+
+        Bundle partial = new Bundle();
+        partial.putInt(ServiceConfig.KEY_VERSION, 2);
+        partial.putInt(ServiceConfig.KEY_TIMER_INTERVAL_MS, 100);
+
+        ServiceConfig merged = ServiceConfig.fromBundle(partial, base);
+        assertEquals(2, merged.getVersion());
+        assertEquals(100, merged.getTimerIntervalMs());
+        assertEquals(ServiceConfig.LOG_LEVEL_DEBUG, merged.getLogLevel());
+        assertEquals(3, merged.getWorkerCount());
+        assertEquals(32, merged.getQueueSize());
+    }
+
+    @Test
+    public void fromBundleWithoutVersionIsNull() {
+        Bundle bundle = new Bundle();
+        bundle.putInt(ServiceConfig.KEY_TIMER_INTERVAL_MS, 100);
+        assertNull(ServiceConfig.fromBundle(bundle, ServiceConfig.DEFAULT));
+        assertNull(ServiceConfig.fromBundle(null, ServiceConfig.DEFAULT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromBundleValidatesMergedConfig() {
+        Bundle bundle = new Bundle();
+        bundle.putInt(ServiceConfig.KEY_VERSION, 2);
+        bundle.putString(ServiceConfig.KEY_LOG_LEVEL, "verbose");
+        ServiceConfig.fromBundle(bundle, ServiceConfig.DEFAULT);
+    }
+}
@@ -0,0 +1,195 @@
+package org.qtproject.qtservice;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Message;
+import android.os.Messenger;
+import android.os.Process;
+import android.os.RemoteException;
+import android.os.SystemClock;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives StatusPublisher through its Messenger the way StatusClient does, but acks by hand
+ * so conflation, cumulative acks and rate limiting can be observed.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StatusPublisherTest {
+    private static final long TIMEOUT_MS = 2000;
+    private static final long QUIET_MS = 200;
+    private static final String KEY = "test.value";
+    private static final String OTHER_KEY = "test.other";
+
+    private StatusPublisher publisher;
+    private Messenger service;
+    private HandlerThread clientThread;
+    private Messenger client;
+    private final BlockingQueue<Message> batches = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Message> metrics = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setUp() {
+        publisher = new StatusPublisher(null);
+        service = new Messenger(publisher.getBinder());
+
+        clientThread = new HandlerThread("StatusPublisherTestClient");
+        clientThread.start();
+        client = new Messenger(new Handler(clientThread.getLooper(), msg -> {
+            if (msg.what == StatusPublisher.MSG_STATUS_BATCH) {
+                batches.add(Message.obtain(msg));
+            } else if (msg.what == StatusPublisher.MSG_METRICS) {
+                metrics.add(Message.obtain(msg));
+            }
+            return true;
+        }));
+    }
+
+    @After
+    public void tearDown() {
+        publisher.shutdown();
+        clientThread.quitSafely();
+    }
+
+    private void send(Message msg) throws RemoteException {
+        msg.replyTo = client;
+        service.send(msg);
+    }
+
+    private void subscribe(int maxRateHz, String clientName) throws RemoteException {
+        Message msg = Message.obtain(null, StatusPublisher.MSG_SUBSCRIBE);
+        Bundle data = new Bundle();
+        data.putInt(StatusPublisher.EXTRA_TOPICS, StatusPublisher.TOPIC_COUNTERS);
+        data.putInt(StatusPublisher.EXTRA_MAX_RATE_HZ, maxRateHz);
+        data.putString(StatusPublisher.EXTRA_CLIENT_NAME, clientName);
+        msg.setData(data);
+        send(msg);
+    }
+
+    private void ack(int seq) throws RemoteException {
+        send(Message.obtain(null, StatusPublisher.MSG_ACK, seq, 0));
+    }
+
+    private void publish(String key, int value) {
+        publisher.publish(StatusPublisher.TOPIC_COUNTERS, key, value);
+    }
+
+    private Message nextBatch() throws InterruptedException {
+        Message batch = batches.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull("No batch delivered", batch);
+        return batch;
+    }
+
+    private Bundle subscriberMetrics() throws Exception {
+        send(Message.obtain(null, StatusPublisher.MSG_GET_METRICS));
+        Message reply = metrics.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull("No metrics delivered", reply);
+        Bundle data = reply.getData();
+        assertEquals(1, data.size());
+        return data.getBundle(data.keySet().iterator().next());
+    }
+
+    @Test
+    public void firstBatchCarriesFullStateThenOnlyDeltas() throws Exception {
+        publish(KEY, 1);
+        publish(OTHER_KEY, 2);
+        publisher.publish(StatusPublisher.TOPIC_LIFECYCLE, StatusPublisher.KEY_STATE, StatusPublisher.STATE_RUNNING);
+        subscribe(60, "test");
+
+        Message first = nextBatch();
+        assertEquals(1, first.arg1);
+        assertEquals(1, first.getData().getInt(KEY));
+        assertEquals(2, first.getData().getInt(OTHER_KEY));
+        // Not subscribed to TOPIC_LIFECYCLE
+        assertFalse(first.getData().containsKey(StatusPublisher.KEY_STATE));
+        ack(first.arg1);
+
+        publish(KEY, 3);
+        // Unchanged value: nothing to deliver
+        publish(OTHER_KEY, 2);
+        Message second = nextBatch();
+        assertEquals(2, second.arg1);
+        assertEquals(1, second.getData().size());
+        assertEquals(3, second.getData().getInt(KEY));
+    }
+
+    @Test
+    public void conflatesWhileUnackedAndAcksAreCumulative() throws Exception {
+        subscribe(60, "test");
+
+        publish(KEY, 1);
+        assertEquals(1, nextBatch().arg1);
+        publish(KEY, 2);
+        assertEquals(2, nextBatch().arg1);
+
+        // Two batches in flight: further values are held and conflated
+        publish(KEY, 3);
+        publish(KEY, 4);
+        publish(KEY, 5);
+        assertNull(batches.poll(QUIET_MS, TimeUnit.MILLISECONDS));
+        Bundle held = subscriberMetrics();
+        assertEquals(2, held.getInt(StatusPublisher.METRIC_LAG_BATCHES));
+        assertEquals(2, held.getLong(StatusPublisher.METRIC_DROPPED_DELTAS));
+
+        // Acking 2 also acks 1, so only the new batch is in flight afterwards
+        ack(2);
+        Message latest = nextBatch();
+        assertEquals(3, latest.arg1);
+        assertEquals(1, latest.getData().size());
+        assertEquals(5, latest.getData().getInt(KEY));
+
+        Bundle afterAck = subscriberMetrics();
+        assertEquals(1, afterAck.getInt(StatusPublisher.METRIC_LAG_BATCHES));
+        assertEquals(3, afterAck.getLong(StatusPublisher.METRIC_SENT_BATCHES));
+    }
+
+    @Test
+    public void batchesAreRateLimited() throws Exception {
+        // 10 Hz: at least 100 ms between batches, even when every batch is acked at once
+        subscribe(10, "test");
+
+        long firstPublishedAt = SystemClock.uptimeMillis();
+        publish(KEY, 1);
+        Message first = nextBatch();
+        ack(first.arg1);
+
+        publish(KEY, 2);
+        nextBatch();
+        assertTrue(SystemClock.uptimeMillis() - firstPublishedAt >= 100);
+    }
+
+    @Test
+    public void metricsIdentifySubscriber() throws Exception {
+        subscribe(60, "dashboard");
+        publish(KEY, 1);
+        nextBatch();
+
+        send(Message.obtain(null, StatusPublisher.MSG_GET_METRICS));
+        Message reply = metrics.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull("No metrics delivered", reply);
+        String clientId = reply.getData().keySet().iterator().next();
+        assertTrue(clientId, clientId.startsWith("dashboard#"));
+
+        Bundle subscriber = reply.getData().getBundle(clientId);
+        assertEquals(clientId, subscriber.getString(StatusPublisher.METRIC_CLIENT_ID));
+        assertEquals("dashboard", subscriber.getString(StatusPublisher.METRIC_CLIENT_NAME));
+        assertEquals(Process.myUid(), subscriber.getInt(StatusPublisher.METRIC_UID));
+        assertEquals(StatusPublisher.TOPIC_COUNTERS, subscriber.getInt(StatusPublisher.METRIC_TOPICS));
+    }
+}
@@ -1,5 +1,6 @@
 #include <jni.h>
 #include <android/log.h>
+#include <cstddef>
 
 #define LOG_TAG "QtServiceJNI"
 #define LOGI(...) __android_log_print(ANDROID_LOG_INFO, LOG_TAG, __VA_ARGS__)
@@ -13,6 +14,13 @@ extern "C" {
     bool qt_service_stop();
     bool qt_service_is_running();
     void qt_service_cleanup();
+
+    // Optional: libraries built before hot-reload support don't export this,
+    // so it is declared weak and resolves to nullptr when missing.
+    // A weak reference doesn't pull an archive member in: define it in the same
+    // object file as qt_service_start(), or configure with -DQT_SERVICE_FORCE_APPLY_CONFIG=ON.
+    bool qt_service_apply_config(const char* config_json, char* rejected, size_t rejected_size)
+        __attribute__((weak));
 }
 
 // JNI functions - MUST match your Java class package exactly
@@ -59,4 +67,30 @@ Java_org_qtproject_qtservice_QtServiceWrapper_nativeCleanupService(JNIEnv *env,
     LOGI("Cleaning up Qt service");
     qt_service_cleanup();
     LOGI("Qt service cleanup complete");
-}
\ No newline at end of file
+}
+
+// Returns null when the config was applied, otherwise the rejection reason
+// (typically the comma-separated keys the Qt service refused to change live).
+extern "C" JNIEXPORT jstring JNICALL
+Java_org_qtproject_qtservice_QtServiceWrapper_nativeApplyConfig(JNIEnv *env, jobject thiz, jstring configJson) {
+    if (qt_service_apply_config == nullptr) {
+        LOGE("qt_service_apply_config not exported by the Qt service library");
+        return env->NewStringUTF("hot reload not supported by Qt service library");
+    }
+
+    const char* config = env->GetStringUTFChars(configJson, nullptr);
+    if (config == nullptr) {
+        return env->NewStringUTF("out of memory");
+    }
+
+    LOGI("Applying Qt service config: %s", config);
+    char rejected[512] = {0};
+    bool result = qt_service_apply_config(config, rejected, sizeof(rejected));
+    env->ReleaseStringUTFChars(configJson, config);
+
+    LOGI("Qt service apply config result: %s", result ? "SUCCESS" : "REJECTED");
+    if (result) {
+        return nullptr;
+    }
+    return env->NewStringUTF(rejected[0] != '\0' ? rejected : "rejected");
+}
@@ -2,7 +2,6 @@ package org.example.androidservicerunnerapp;
 
 import android.Manifest;
 import android.app.Activity;
-import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.Bundle;
@@ -18,6 +17,10 @@ import androidx.annotation.NonNull;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
+import org.qtproject.qtservice.QtServiceHost;
+import org.qtproject.qtservice.StatusClient;
+import org.qtproject.qtservice.StatusPublisher;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -30,6 +33,9 @@ public class MainActivity extends Activity {
     private static final String TAG = "QtServiceTestApplication";
     private static final int NOTIFICATION_PERMISSION_REQUEST_CODE = 100;
 
+    // Launch-time override of BuildConfig.QT_SERVICE_HOST_MODE ("isolated" or "in_process")
+    public static final String EXTRA_HOST_MODE = "qtServiceHostMode";
+
     private Button serviceToggleButton;
     private TextView consoleOutput;
     private ScrollView scrollView;
@@ -39,6 +45,8 @@ public class MainActivity extends Activity {
     private boolean notificationPermissionGranted = false;
     private Handler mainHandler;
     private Thread logcatThread;
+    private StatusClient statusClient;
+    private QtServiceHost serviceHost;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -47,6 +55,11 @@ public class MainActivity extends Activity {
 
         mainHandler = new Handler(Looper.getMainLooper());
 
+        QtServiceHost.Mode defaultMode = QtServiceHost.Mode.parse(
+                BuildConfig.QT_SERVICE_HOST_MODE, QtServiceHost.Mode.ISOLATED_PROCESS);
+        serviceHost = QtServiceHost.create(this,
+                QtServiceHost.Mode.parse(getIntent().getStringExtra(EXTRA_HOST_MODE), defaultMode));
+
         // Initialize UI components
         initializeUI();
 
@@ -56,8 +69,12 @@ public class MainActivity extends Activity {
         // Start logcat monitoring
         startLogcatMonitoring();
 
+        // Subscribe to service lifecycle updates
+        startStatusMonitoring();
+
         appendToConsole("=== Qt Service Test App Started ===");
         appendToConsole("Ready to start Qt Service Library");
+        appendToConsole("Service hosting: " + serviceHost.getMode());
 
         Log.i(TAG, "Qt Service Test App initialized");
     }
@@ -168,18 +185,11 @@ public class MainActivity extends Activity {
         Log.i(TAG, "Starting Qt Service from test app");
 
         try {
-            Intent serviceIntent = new Intent(this, org.qtproject.qtservice.QtServiceWrapper.class);
-
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                startForegroundService(serviceIntent);
-                if (notificationPermissionGranted) {
-                    appendToConsole("Started as foreground service with notification permission");
-                } else {
-                    appendToConsole("Started as foreground service (but notification permission missing)");
-                }
+            serviceHost.start();
+            if (notificationPermissionGranted) {
+                appendToConsole("Started as foreground service with notification permission");
             } else {
-                startService(serviceIntent);
-                appendToConsole("Started as background service");
+                appendToConsole("Started as foreground service (but notification permission missing)");
             }
 
             serviceRunning = true;
@@ -208,8 +218,7 @@ public class MainActivity extends Activity {
         Log.i(TAG, "Stopping Qt Service from test app");
 
         try {
-            Intent serviceIntent = new Intent(this, org.qtproject.qtservice.QtServiceWrapper.class);
-            stopService(serviceIntent);
+            serviceHost.stop();
 
             serviceRunning = false;
             updateToggleButton();
@@ -273,6 +282,20 @@ public class MainActivity extends Activity {
         appendToConsole("Started monitoring Qt service logs...");
     }
 
+    private void startStatusMonitoring() {
+        statusClient = serviceHost.newStatusClient(StatusPublisher.TOPIC_LIFECYCLE, 4,
+                new StatusClient.Listener() {
+                    @Override
+                    public void onStatusChanged(Bundle changed, Bundle snapshot) {
+                        if (changed.containsKey(StatusPublisher.KEY_STATE)) {
+                            appendToConsole("Service state: " + changed.getString(StatusPublisher.KEY_STATE));
+                        }
+                    }
+                });
+        statusClient.setClientName("MainActivity");
+        statusClient.connect();
+    }
+
     private boolean isRelevantLogLine(String line) {
         return line.contains("QtServiceWrapper") ||
                 line.contains("QtService") ||
@@ -354,6 +377,11 @@ public class MainActivity extends Activity {
             logcatThread.interrupt();
         }
 
+        // Stop status monitoring
+        if (statusClient != null) {
+            statusClient.disconnect();
+        }
+
         Log.i(TAG, "Qt Service Consumer App destroyed");
     }
 
@@ -0,0 +1,174 @@
+package org.qtproject.qtservice;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Messenger;
+import android.os.RemoteException;
+import android.os.ResultReceiver;
+import android.util.Log;
+import android.util.SparseArray;
+
+/**
+ * Isolated-process QtServiceHost: IsolatedQtServiceWrapper runs in ":qtservice"
+ * and commands travel over its StatusPublisher Messenger.
+ *
+ * Must not touch QtServiceWrapper members at runtime: initializing that class
+ * loads qtservice-jni, and with it the Qt runtime, into the app process.
+ */
+class IsolatedQtServiceHost implements QtServiceHost {
+    private static final String TAG = "QtServiceHost";
+
+    private final Context context;
+    private final Messenger replyMessenger;
+    private final SparseArray<Runnable> pendingPings = new SparseArray<>();
+    private int nextPingId = 1;
+
+    private Messenger service;
+    private boolean bound = false;
+    private Runnable onConnected;
+
+    private final ServiceConnection connection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder binder) {
+            service = new Messenger(binder);
+            Log.d(TAG, "✓ Connected to isolated Qt service");
+            if (onConnected != null) {
+                onConnected.run();
+                onConnected = null;
+            }
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            service = null;
+            pendingPings.clear();
+            Log.w(TAG, "Isolated Qt service disconnected");
+        }
+    };
+
+    IsolatedQtServiceHost(Context context) {
+        this.context = context.getApplicationContext();
+        this.replyMessenger = new Messenger(new Handler(Looper.getMainLooper(), this::handleMessage));
+    }
+
+    @Override
+    public Mode getMode() {
+        return Mode.ISOLATED_PROCESS;
+    }
+
+    @Override
+    public Class<? extends QtServiceWrapper> getServiceClass() {
+        return IsolatedQtServiceWrapper.class;
+    }
+
+    @Override
+    public void start(ServiceConfig initialConfig) {
+        Intent intent = new Intent(context, IsolatedQtServiceWrapper.class);
+        if (initialConfig != null) {
+            intent.putExtra(StatusPublisher.EXTRA_CONFIG, initialConfig.toBundle());
+        }
+        context.startForegroundService(intent);
+    }
+
+    @Override
+    public void stop() {
+        context.stopService(new Intent(context, IsolatedQtServiceWrapper.class));
+    }
+
+    @Override
+    public void connect(Runnable onConnected) {
+        if (bound) {
+            if (service != null && onConnected != null) {
+                onConnected.run();
+            } else {
+                this.onConnected = onConnected;
+            }
+            return;
+        }
+        this.onConnected = onConnected;
+        bound = context.bindService(new Intent(context, IsolatedQtServiceWrapper.class), connection, 0);
+        if (!bound) {
+            Log.e(TAG, "Failed to bind to isolated Qt service");
+        }
+    }
+
+    @Override
+    public void disconnect() {
+        if (!bound) {
+            return;
+        }
+        context.unbindService(connection);
+        bound = false;
+        service = null;
+        onConnected = null;
+        pendingPings.clear();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return service != null;
+    }
+
+    @Override
+    public void applyConfig(ServiceConfig config, ResultReceiver receiver) {
+        if (service == null) {
+            Log.w(TAG, "Config v" + config.getVersion() + " not sent - isolated Qt service not connected");
+            ServiceConfig.sendResult(receiver, ServiceConfig.RESULT_REJECTED, "isolated Qt service not connected", null);
+            return;
+        }
+        Message msg = Message.obtain(null, StatusPublisher.MSG_APPLY_CONFIG);
+        Bundle data = new Bundle();
+        data.putBundle(StatusPublisher.EXTRA_CONFIG, config.toBundle());
+        data.putParcelable(StatusPublisher.EXTRA_RESULT_RECEIVER, receiver);
+        msg.setData(data);
+        try {
+            service.send(msg);
+        } catch (RemoteException e) {
+            Log.w(TAG, "Failed to send config to isolated Qt service", e);
+            ServiceConfig.sendResult(receiver, ServiceConfig.RESULT_REJECTED, "isolated Qt service unreachable", null);
+        }
+    }
+
+    @Override
+    public void ping(Runnable onReply) {
+        if (service == null) {
+            Log.w(TAG, "Ping while not connected");
+            return;
+        }
+        int id = nextPingId++;
+        pendingPings.put(id, onReply);
+
+        Message msg = Message.obtain(null, StatusPublisher.MSG_PING, id, 0);
+        msg.replyTo = replyMessenger;
+        try {
+            service.send(msg);
+        } catch (RemoteException e) {
+            pendingPings.remove(id);
+            Log.w(TAG, "Failed to ping isolated Qt service", e);
+        }
+    }
+
+    @Override
+    public StatusClient newStatusClient(int topics, int maxRateHz, StatusClient.Listener listener) {
+        return new StatusClient(context, IsolatedQtServiceWrapper.class, topics, maxRateHz, listener);
+    }
+
+    private boolean handleMessage(Message msg) {
+        if (msg.what != StatusPublisher.MSG_PONG) {
+            return false;
+        }
+        Runnable onReply = pendingPings.get(msg.arg1);
+        if (onReply != null) {
+            pendingPings.remove(msg.arg1);
+            onReply.run();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,8 @@
+package org.qtproject.qtservice;
+
+/**
+ * QtServiceWrapper hosted in its own ":qtservice" process (see AndroidManifest.xml).
+ * Keeps the Qt runtime out of the app process at the cost of IPC for every interaction.
+ */
+public class IsolatedQtServiceWrapper extends QtServiceWrapper {
+}
@@ -0,0 +1,127 @@
+package org.qtproject.qtservice;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.IBinder;
+import android.os.ResultReceiver;
+import android.util.Log;
+
+/**
+ * In-process QtServiceHost: binds to a LocalBinder and calls QtServiceWrapper directly.
+ */
+class LocalQtServiceHost implements QtServiceHost {
+    private static final String TAG = "QtServiceHost";
+
+    private final Context context;
+    private QtServiceWrapper service;
+    private boolean bound = false;
+    private Runnable onConnected;
+
+    private final ServiceConnection connection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder binder) {
+            service = ((QtServiceWrapper.LocalBinder) binder).getService();
+            Log.d(TAG, "✓ Connected to in-process Qt service");
+            if (onConnected != null) {
+                onConnected.run();
+                onConnected = null;
+            }
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            service = null;
+        }
+    };
+
+    LocalQtServiceHost(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @Override
+    public Mode getMode() {
+        return Mode.IN_PROCESS;
+    }
+
+    @Override
+    public Class<? extends QtServiceWrapper> getServiceClass() {
+        return QtServiceWrapper.class;
+    }
+
+    @Override
+    public void start(ServiceConfig initialConfig) {
+        Intent intent = new Intent(context, QtServiceWrapper.class);
+        if (initialConfig != null) {
+            intent.putExtra(StatusPublisher.EXTRA_CONFIG, initialConfig.toBundle());
+        }
+        context.startForegroundService(intent);
+    }
+
+    @Override
+    public void stop() {
+        context.stopService(new Intent(context, QtServiceWrapper.class));
+    }
+
+    @Override
+    public void connect(Runnable onConnected) {
+        if (bound) {
+            if (service != null && onConnected != null) {
+                onConnected.run();
+            } else {
+                this.onConnected = onConnected;
+            }
+            return;
+        }
+        this.onConnected = onConnected;
+        Intent intent = new Intent(context, QtServiceWrapper.class);
+        intent.setAction(QtServiceWrapper.ACTION_BIND_LOCAL);
+        bound = context.bindService(intent, connection, 0);
+        if (!bound) {
+            Log.e(TAG, "Failed to bind to in-process Qt service");
+        }
+    }
+
+    @Override
+    public void disconnect() {
+        if (!bound) {
+            return;
+        }
+        context.unbindService(connection);
+        bound = false;
+        service = null;
+        onConnected = null;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return service != null;
+    }
+
+    @Override
+    public void applyConfig(ServiceConfig config, ResultReceiver receiver) {
+        if (service == null) {
+            Log.w(TAG, "Config v" + config.getVersion() + " not sent - in-process Qt service not connected");
+            ServiceConfig.sendResult(receiver, ServiceConfig.RESULT_REJECTED, "in-process Qt service not connected", null);
+            return;
+        }
+        service.submitConfig(config, receiver);
+    }
+
+    @Override
+    public void ping(Runnable onReply) {
+        if (service == null) {
+            Log.w(TAG, "Ping while not connected");
+            return;
+        }
+        // Same work as the isolated MSG_PING handler, minus the IPC
+        service.isNativeRunning();
+        onReply.run();
+    }
+
+    @Override
+    public StatusClient newStatusClient(int topics, int maxRateHz, StatusClient.Listener listener) {
+        return new StatusClient(context, QtServiceWrapper.class, topics, maxRateHz, listener);
+    }
+}
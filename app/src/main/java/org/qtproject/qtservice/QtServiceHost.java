@@ -0,0 +1,85 @@
+package org.qtproject.qtservice;
+
+import android.content.Context;
+import android.os.ResultReceiver;
+
+/**
+ * Client-side handle to the Qt service, independent of where it is hosted.
+ * IN_PROCESS runs QtServiceWrapper in the app process and calls it directly;
+ * ISOLATED_PROCESS runs IsolatedQtServiceWrapper in ":qtservice" and talks to it over Binder.
+ *
+ * Callbacks are delivered on the main thread.
+ */
+public interface QtServiceHost {
+
+    enum Mode {
+        IN_PROCESS,
+        ISOLATED_PROCESS;
+
+        /**
+         * Parses "in_process" / "isolated" (case-insensitive), falling back to {@code fallback}.
+         */
+        public static Mode parse(String value, Mode fallback) {
+            if (value == null) {
+                return fallback;
+            }
+            switch (value.trim().toLowerCase(java.util.Locale.ROOT)) {
+                case "in_process":
+                case "inprocess":
+                case "local":
+                    return IN_PROCESS;
+                case "isolated":
+                case "isolated_process":
+                case "remote":
+                    return ISOLATED_PROCESS;
+                default:
+                    return fallback;
+            }
+        }
+    }
+
+    Mode getMode();
+
+    Class<? extends QtServiceWrapper> getServiceClass();
+
+    /** Starts the service as a foreground service. */
+    default void start() {
+        start(null);
+    }
+
+    /**
+     * Starts the service with {@code initialConfig} (may be null), applied between
+     * native initialize and start, where every key is allowed.
+     */
+    void start(ServiceConfig initialConfig);
+
+    void stop();
+
+    /** Binds for commands; {@code onConnected} runs once commands can be issued. */
+    void connect(Runnable onConnected);
+
+    void disconnect();
+
+    boolean isConnected();
+
+    /**
+     * Sends a config update to the connected service; see QtServiceWrapper#submitConfig.
+     * {@code receiver} (may be null) gets one of ServiceConfig.RESULT_* with the reason and diff.
+     */
+    void applyConfig(ServiceConfig config, ResultReceiver receiver);
+
+    /**
+     * Round-trips a command that runs QtServiceWrapper#isNativeRunning() in the service;
+     * both modes do the same work, so latencies are comparable.
+     */
+    void ping(Runnable onReply);
+
+    StatusClient newStatusClient(int topics, int maxRateHz, StatusClient.Listener listener);
+
+    static QtServiceHost create(Context context, Mode mode) {
+        if (mode == Mode.IN_PROCESS) {
+            return new LocalQtServiceHost(context);
+        }
+        return new IsolatedQtServiceHost(context);
+    }
+}
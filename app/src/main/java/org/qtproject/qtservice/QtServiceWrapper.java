@@ -6,14 +6,25 @@ import android.app.NotificationManager;
 import android.app.Service;
 import android.content.Context;
 import android.content.Intent;
+import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
+import android.os.Binder;
 import android.os.Build;
+import android.os.Bundle;
 import android.os.IBinder;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.Looper;
+import android.os.Message;
+import android.os.RemoteException;
+import android.os.ResultReceiver;
+import android.os.SystemClock;
 import android.util.Log;
 import androidx.core.app.ActivityCompat;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Qt Service Wrapper - Static Library Version
  * Loads Qt service from statically linked native library
@@ -22,9 +33,34 @@ public class QtServiceWrapper extends Service {
     private static final String TAG = "QtServiceWrapper";
     private static final String DEFAULT_CHANNEL_ID = "qt_service_channel";
     private static final int NOTIFICATION_ID = 1;
+    private static final long HEARTBEAT_INTERVAL_MS = 1000;
+
+    // Binds to a LocalBinder for direct calls; only valid when the client shares the service's process
+    public static final String ACTION_BIND_LOCAL = "org.qtproject.qtservice.BIND_LOCAL";
 
-    private static boolean qtInitialized = false;
+    private static volatile boolean qtInitialized = false;
     private static boolean qtStarted = false;
+
+    // Config state and native init/start/stop are confined to the config thread, so a live
+    // apply never overlaps startup or teardown. The one exception is onStartCommand(), which
+    // queues the initial config synchronously; configLock guards that hand-off and is only
+    // held for field access, never across native calls.
+    private static final Object configLock = new Object();
+    private static ServiceConfig appliedConfig = ServiceConfig.DEFAULT;
+    private static ServiceConfig pendingConfig = null;
+    // Gets the final result for pendingConfig once it is applied at startup or superseded
+    private static ResultReceiver pendingReceiver = null;
+    // Set once initializeQt() has taken pendingConfig; cleared by cleanupQt()
+    private static boolean startupConfigTaken = false;
+    private static int configApplied = 0;
+    private static int configRejected = 0;
+    private static int startCount = 0;
+
+    // Config updates are merged and applied one at a time, in arrival order, on this thread
+    private static Handler configHandler;
+
+    private StatusPublisher statusPublisher;
+    private long createdAt;
     private Handler mainHandler;
     private boolean hasNotificationPermission = false;
 
@@ -45,6 +81,7 @@ public class QtServiceWrapper extends Service {
     private native boolean nativeStopService();
     private native boolean nativeIsServiceRunning();
     private native void nativeCleanupService();
+    private native String nativeApplyConfig(String configJson);
 
     @Override
     public void onCreate() {
@@ -52,6 +89,17 @@ public class QtServiceWrapper extends Service {
         Log.d(TAG, "Process ID: " + android.os.Process.myPid());
 
         mainHandler = new Handler(Looper.getMainLooper());
+        createdAt = SystemClock.elapsedRealtime();
+        statusPublisher = new StatusPublisher(this::handleCommand);
+        publishStatus(StatusPublisher.TOPIC_LIFECYCLE, StatusPublisher.KEY_STATE, StatusPublisher.STATE_CREATED);
+        configHandler().post(() -> {
+            publishStatus(StatusPublisher.TOPIC_COUNTERS, StatusPublisher.KEY_START_COUNT, ++startCount);
+            publishStatus(StatusPublisher.TOPIC_COUNTERS, StatusPublisher.KEY_CONFIG_APPLIED, configApplied);
+            publishStatus(StatusPublisher.TOPIC_COUNTERS, StatusPublisher.KEY_CONFIG_REJECTED, configRejected);
+            publishStatus(StatusPublisher.TOPIC_COUNTERS, StatusPublisher.KEY_CONFIG_VERSION, appliedConfig.getVersion());
+        });
+        mainHandler.post(heartbeat);
+
         checkNotificationPermission();
 
         // Start foreground service if we have permission
@@ -91,6 +139,15 @@ public class QtServiceWrapper extends Service {
             startForeground(NOTIFICATION_ID, notification);
         }
 
+        // Initial config from QtServiceHost.start(ServiceConfig)
+        if (intent != null && intent.hasExtra(StatusPublisher.EXTRA_CONFIG)) {
+            Bundle bundle = intent.getBundleExtra(StatusPublisher.EXTRA_CONFIG);
+            if (!queueStartupConfig(bundle)) {
+                // Already running or past the startup window, or invalid: handle like any update
+                configHandler().post(() -> handleConfigBundle(bundle, null));
+            }
+        }
+
         if (!qtStarted) {
             qtStarted = true;
             mainHandler.post(this::startQtInitialization);
@@ -104,12 +161,22 @@ public class QtServiceWrapper extends Service {
     public void onDestroy() {
         Log.d(TAG, "=== QtServiceWrapper onDestroy ===");
 
-        try {
-            if (hasNotificationPermission) {
-                stopForeground(true);
-            }
+        mainHandler.removeCallbacks(heartbeat);
+
+        if (hasNotificationPermission) {
+            stopForeground(true);
+        }
+        qtStarted = false;
+
+        // Queued behind any config apply in progress, and ahead of a restart's initialization
+        configHandler().post(this::cleanupQt);
+    }
 
+    // Runs on the config thread
+    private void cleanupQt() {
+        try {
             if (qtInitialized) {
+                qtInitialized = false;
                 Log.d(TAG, "Cleaning up Qt service...");
                 try {
                     nativeStopService();
@@ -120,18 +187,131 @@ public class QtServiceWrapper extends Service {
                 }
             }
 
-            qtInitialized = false;
-            qtStarted = false;
+            synchronized (configLock) {
+                // Native state is gone; replay the last config on the next start
+                if (appliedConfig.getVersion() > 0 && pendingConfig == null) {
+                    pendingConfig = appliedConfig;
+                    pendingReceiver = null;
+                }
+                appliedConfig = ServiceConfig.DEFAULT;
+                startupConfigTaken = false;
+            }
             Log.d(TAG, "Qt service cleanup completed");
 
         } catch (Exception e) {
             Log.e(TAG, "Error during cleanup", e);
         }
+
+        // Published after native cleanup; shutdown() flushes it to every subscriber
+        publishStatus(StatusPublisher.TOPIC_LIFECYCLE, StatusPublisher.KEY_STATE, StatusPublisher.STATE_STOPPED);
+        statusPublisher.shutdown();
     }
 
     @Override
     public IBinder onBind(Intent intent) {
-        return null;
+        if (ACTION_BIND_LOCAL.equals(intent.getAction())) {
+            Log.d(TAG, "Local client bound");
+            return new LocalBinder();
+        }
+        Log.d(TAG, "Status client bound");
+        return statusPublisher.getBinder();
+    }
+
+    /**
+     * Gives in-process clients direct access to the service instance.
+     */
+    public class LocalBinder extends Binder {
+        public QtServiceWrapper getService() {
+            return QtServiceWrapper.this;
+        }
+    }
+
+    /**
+     * Applies a config update. Live keys are applied on the Qt event loop without a restart;
+     * before the Qt service has started, the config is queued and applied at startup.
+     * Isolated-process clients reach this through StatusPublisher.MSG_APPLY_CONFIG.
+     *
+     * {@code receiver} (may be null) gets one of ServiceConfig.RESULT_* with the reason and diff.
+     */
+    public void submitConfig(ServiceConfig config, ResultReceiver receiver) {
+        // The native call blocks until the Qt event loop has applied the change
+        configHandler().post(() -> applyConfigUpdate(config, receiver));
+    }
+
+    /**
+     * Queues the start intent's config for initializeQt() on the calling thread, so it is
+     * applied before nativeStartService() even if initialization is already under way.
+     * Returns false if it can't be queued that way.
+     */
+    private static boolean queueStartupConfig(Bundle bundle) {
+        synchronized (configLock) {
+            if (startupConfigTaken) {
+                return false;
+            }
+            ServiceConfig base = pendingConfig != null ? pendingConfig : appliedConfig;
+            ServiceConfig config;
+            try {
+                config = ServiceConfig.fromBundle(bundle, base);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            if (config == null || config.getVersion() <= base.getVersion()) {
+                return false;
+            }
+            supersedePending(config);
+            pendingConfig = config;
+            pendingReceiver = null;
+            Log.d(TAG, "Startup config v" + config.getVersion() + " queued");
+            return true;
+        }
+    }
+
+    // Callers hold configLock
+    private static void supersedePending(ServiceConfig update) {
+        if (pendingConfig == null) {
+            return;
+        }
+        Log.d(TAG, "Queued config v" + pendingConfig.getVersion() + " superseded by v" + update.getVersion());
+        ServiceConfig.sendResult(pendingReceiver, ServiceConfig.RESULT_REJECTED,
+                "superseded by v" + update.getVersion() + " before Qt service started", null);
+    }
+
+    private static synchronized Handler configHandler() {
+        if (configHandler == null) {
+            // Process-wide, like the config state it serializes access to
+            HandlerThread thread = new HandlerThread("QtServiceConfig");
+            thread.start();
+            configHandler = new Handler(thread.getLooper());
+        }
+        return configHandler;
+    }
+
+    public boolean isNativeRunning() {
+        if (!qtInitialized) {
+            return false;
+        }
+        try {
+            return nativeIsServiceRunning();
+        } catch (UnsatisfiedLinkError e) {
+            Log.w(TAG, "nativeIsServiceRunning not available: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private final Runnable heartbeat = new Runnable() {
+        @Override
+        public void run() {
+            publishStatus(StatusPublisher.TOPIC_HEARTBEAT, StatusPublisher.KEY_UPTIME_MS,
+                    SystemClock.elapsedRealtime() - createdAt);
+            publishStatus(StatusPublisher.TOPIC_HEARTBEAT, StatusPublisher.KEY_NATIVE_RUNNING, isNativeRunning());
+            mainHandler.postDelayed(this, HEARTBEAT_INTERVAL_MS);
+        }
+    };
+
+    private void publishStatus(int topic, String key, Object value) {
+        if (statusPublisher != null) {
+            statusPublisher.publish(topic, key, value);
+        }
     }
 
     private void checkNotificationPermission() {
@@ -151,13 +331,15 @@ public class QtServiceWrapper extends Service {
     }
 
     private void startQtInitialization() {
-        Log.d(TAG, "Starting Qt service initialization in background thread...");
+        Log.d(TAG, "Starting Qt service initialization on the config thread...");
 
-        new Thread(() -> initializeQt()).start();
+        configHandler().post(this::initializeQt);
     }
 
+    // Runs on the config thread
     private void initializeQt() {
         Log.d(TAG, "Qt service initialization thread started");
+        publishStatus(StatusPublisher.TOPIC_LIFECYCLE, StatusPublisher.KEY_STATE, StatusPublisher.STATE_INITIALIZING);
 
         try {
             updateNotification("Loading Qt service from static library...");
@@ -169,6 +351,7 @@ public class QtServiceWrapper extends Service {
                 updateNotification("Loaded: " + version);
             } catch (UnsatisfiedLinkError e) {
                 Log.e(TAG, "Native functions not available: " + e.getMessage());
+                publishStatus(StatusPublisher.TOPIC_LIFECYCLE, StatusPublisher.KEY_STATE, StatusPublisher.STATE_ERROR);
                 updateNotification("ERROR: Native Qt functions not available");
                 return;
             }
@@ -178,16 +361,45 @@ public class QtServiceWrapper extends Service {
             // Initialize Qt service
             if (!nativeInitializeService()) {
                 Log.e(TAG, "Failed to initialize Qt service");
+                publishStatus(StatusPublisher.TOPIC_LIFECYCLE, StatusPublisher.KEY_STATE, StatusPublisher.STATE_ERROR);
                 updateNotification("ERROR: Qt service initialization failed");
                 return;
             }
             Log.d(TAG, "✓ Qt service initialized");
 
+            ServiceConfig startupConfig;
+            ResultReceiver startupReceiver;
+            synchronized (configLock) {
+                startupConfig = pendingConfig;
+                startupReceiver = pendingReceiver;
+                pendingConfig = null;
+                pendingReceiver = null;
+                startupConfigTaken = true;
+            }
+
+            // Nothing is running yet, so every key can be applied here
+            if (startupConfig != null) {
+                ServiceConfig previous = appliedConfig;
+                ArrayList<String> diff = describeChanges(startupConfig, previous, startupConfig.diff(previous));
+                String rejected = callNativeApplyConfig(startupConfig);
+                if (rejected == null) {
+                    synchronized (configLock) {
+                        appliedConfig = startupConfig;
+                    }
+                    recordConfigApplied();
+                    Log.d(TAG, "✓ Startup config applied: " + appliedConfig);
+                    ServiceConfig.sendResult(startupReceiver, ServiceConfig.RESULT_APPLIED, "applied at startup", diff);
+                } else {
+                    rejectConfig(startupConfig, startupReceiver, "rejected by Qt service at startup: " + rejected, diff);
+                }
+            }
+
             updateNotification("Starting Qt service...");
 
             // Start Qt service
             if (!nativeStartService()) {
                 Log.e(TAG, "Failed to start Qt service");
+                publishStatus(StatusPublisher.TOPIC_LIFECYCLE, StatusPublisher.KEY_STATE, StatusPublisher.STATE_ERROR);
                 updateNotification("ERROR: Qt service start failed");
                 return;
             }
@@ -196,14 +408,176 @@ public class QtServiceWrapper extends Service {
             qtInitialized = true;
             Log.d(TAG, "✓ Qt service initialization completed successfully");
 
+            publishStatus(StatusPublisher.TOPIC_LIFECYCLE, StatusPublisher.KEY_STATE, StatusPublisher.STATE_RUNNING);
             updateNotification("Qt service active - timer threads running");
 
         } catch (Exception e) {
             Log.e(TAG, "Qt service initialization failed", e);
+            publishStatus(StatusPublisher.TOPIC_LIFECYCLE, StatusPublisher.KEY_STATE, StatusPublisher.STATE_ERROR);
             updateNotification("ERROR: Qt service failed - " + e.getMessage());
         }
     }
 
+    // Commands sent over the status Messenger by isolated-process clients
+    private boolean handleCommand(Message msg) {
+        switch (msg.what) {
+            case StatusPublisher.MSG_APPLY_CONFIG: {
+                Bundle data = msg.getData();
+                data.setClassLoader(ResultReceiver.class.getClassLoader());
+                ResultReceiver receiver = data.getParcelable(StatusPublisher.EXTRA_RESULT_RECEIVER);
+                Bundle bundle = data.getBundle(StatusPublisher.EXTRA_CONFIG);
+                configHandler().post(() -> handleConfigBundle(bundle, receiver));
+                return true;
+            }
+            case StatusPublisher.MSG_PING:
+                // Same work as a direct LocalQtServiceHost.ping()
+                boolean running = isNativeRunning();
+                if (msg.replyTo != null) {
+                    try {
+                        msg.replyTo.send(Message.obtain(null, StatusPublisher.MSG_PONG, msg.arg1, running ? 1 : 0));
+                    } catch (RemoteException e) {
+                        Log.w(TAG, "Failed to send pong", e);
+                    }
+                }
+                return true;
+            case StatusPublisher.MSG_PUBLISH_BURST:
+                // Benchmark hook; a release build must not let any bound client flood the subscribers
+                if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+                    statusPublisher.publishBurst(msg.arg1);
+                } else {
+                    Log.w(TAG, "Publish burst ignored - not a debuggable build");
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Runs on the config thread, so the merge sees every earlier update already recorded
+    private void handleConfigBundle(Bundle bundle, ResultReceiver receiver) {
+        final ServiceConfig update;
+        try {
+            synchronized (configLock) {
+                // Partial updates build on the newest config, even if it is only queued
+                ServiceConfig base = pendingConfig != null ? pendingConfig : appliedConfig;
+                update = ServiceConfig.fromBundle(bundle, base);
+            }
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Config update rejected: " + e.getMessage());
+            ServiceConfig.sendResult(receiver, ServiceConfig.RESULT_REJECTED, e.getMessage(), null);
+            return;
+        }
+
+        if (update == null) {
+            Log.w(TAG, "Config update ignored - message carries no config");
+            ServiceConfig.sendResult(receiver, ServiceConfig.RESULT_REJECTED, "no config in message", null);
+            return;
+        }
+
+        applyConfigUpdate(update, receiver);
+    }
+
+    // Runs on the config thread
+    private void applyConfigUpdate(ServiceConfig update, ResultReceiver receiver) {
+        if (!qtInitialized) {
+            ServiceConfig queued;
+            synchronized (configLock) {
+                queued = pendingConfig != null ? pendingConfig : appliedConfig;
+                if (update.getVersion() > queued.getVersion()) {
+                    supersedePending(update);
+                    pendingConfig = update;
+                    pendingReceiver = receiver;
+                }
+            }
+            if (update.getVersion() <= queued.getVersion()) {
+                rejectConfig(update, receiver, "not newer than v" + queued.getVersion(), new ArrayList<String>());
+                return;
+            }
+            Log.d(TAG, "Config v" + update.getVersion() + " queued until Qt service starts");
+            // The same receiver gets the final result from initializeQt() or supersedePending()
+            ServiceConfig.sendResult(receiver, ServiceConfig.RESULT_QUEUED, "queued until Qt service starts",
+                    describeChanges(update, queued, update.diff(queued)));
+            return;
+        }
+
+        ServiceConfig current = appliedConfig;
+        if (update.getVersion() <= current.getVersion()) {
+            rejectConfig(update, receiver, "not newer than v" + current.getVersion(), new ArrayList<String>());
+            return;
+        }
+
+        List<String> changed = update.diff(current);
+        List<String> restartRequired = update.restartRequiredKeys(current);
+        if (!restartRequired.isEmpty()) {
+            rejectConfig(update, receiver, "keys require restart", describeChanges(update, current, restartRequired));
+            return;
+        }
+
+        if (!changed.isEmpty()) {
+            String rejected = callNativeApplyConfig(update);
+            if (rejected != null) {
+                rejectConfig(update, receiver, "rejected by Qt service: " + rejected,
+                        describeChanges(update, current, changed));
+                return;
+            }
+        }
+
+        synchronized (configLock) {
+            appliedConfig = update;
+        }
+        recordConfigApplied();
+        ArrayList<String> diff = describeChanges(update, current, changed);
+        Log.d(TAG, "✓ Config v" + update.getVersion() + " applied live");
+        for (String line : diff) {
+            Log.d(TAG, "  " + line);
+        }
+        ServiceConfig.sendResult(receiver, ServiceConfig.RESULT_APPLIED, "applied live", diff);
+
+        updateNotification("Qt service active - config v" + update.getVersion());
+    }
+
+    // Runs on the config thread
+    private void rejectConfig(ServiceConfig update, ResultReceiver receiver, String reason, ArrayList<String> diff) {
+        Log.w(TAG, "Config v" + update.getVersion() + " rejected: " + reason);
+        for (String line : diff) {
+            Log.w(TAG, "  " + line);
+        }
+        recordConfigRejected();
+        ServiceConfig.sendResult(receiver, ServiceConfig.RESULT_REJECTED, reason, diff);
+    }
+
+    private static ArrayList<String> describeChanges(ServiceConfig update, ServiceConfig previous, List<String> keys) {
+        ArrayList<String> lines = new ArrayList<>();
+        for (String key : keys) {
+            lines.add(update.describeChange(previous, key));
+        }
+        return lines;
+    }
+
+    // Runs on the config thread
+    private void recordConfigApplied() {
+        configApplied++;
+        publishStatus(StatusPublisher.TOPIC_COUNTERS, StatusPublisher.KEY_CONFIG_APPLIED, configApplied);
+        publishStatus(StatusPublisher.TOPIC_COUNTERS, StatusPublisher.KEY_CONFIG_VERSION, appliedConfig.getVersion());
+    }
+
+    private void recordConfigRejected() {
+        configRejected++;
+        publishStatus(StatusPublisher.TOPIC_COUNTERS, StatusPublisher.KEY_CONFIG_REJECTED, configRejected);
+    }
+
+    /**
+     * Returns null when the native side applied the config, otherwise the reason it was rejected.
+     */
+    private String callNativeApplyConfig(ServiceConfig config) {
+        try {
+            return nativeApplyConfig(config.toJson());
+        } catch (UnsatisfiedLinkError e) {
+            Log.e(TAG, "nativeApplyConfig not available: " + e.getMessage());
+            return "nativeApplyConfig not available";
+        }
+    }
+
     private Notification createServiceNotification(String statusText) {
         if (!hasNotificationPermission) {
             return null;
@@ -226,6 +600,8 @@ public class QtServiceWrapper extends Service {
     }
 
     private void updateNotification(String statusText) {
+        publishStatus(StatusPublisher.TOPIC_LIFECYCLE, StatusPublisher.KEY_STATE_DETAIL, statusText);
+
         if (!hasNotificationPermission) {
             Log.d(TAG, "Notification update skipped (no permission): " + statusText);
             return;
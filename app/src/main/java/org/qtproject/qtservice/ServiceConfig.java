@@ -0,0 +1,266 @@
+package org.qtproject.qtservice;
+
+import android.os.Bundle;
+import android.os.ResultReceiver;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Versioned Qt service configuration.
+ * Delivered to the running QtServiceWrapper and handed to the native side as JSON,
+ * where it is applied on the Qt event loop without restarting the service.
+ */
+public final class ServiceConfig {
+    public static final String KEY_VERSION = "version";
+    public static final String KEY_TIMER_INTERVAL_MS = "timerIntervalMs";
+    public static final String KEY_LOG_LEVEL = "logLevel";
+    public static final String KEY_WORKER_COUNT = "workerCount";
+    public static final String KEY_QUEUE_SIZE = "queueSize";
+
+    public static final String LOG_LEVEL_DEBUG = "debug";
+    public static final String LOG_LEVEL_INFO = "info";
+    public static final String LOG_LEVEL_WARNING = "warning";
+    public static final String LOG_LEVEL_CRITICAL = "critical";
+
+    private static final Set<String> LOG_LEVELS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            LOG_LEVEL_DEBUG,
+            LOG_LEVEL_INFO,
+            LOG_LEVEL_WARNING,
+            LOG_LEVEL_CRITICAL
+    )));
+
+    // Result codes delivered to the ResultReceiver passed with a config update.
+    // RESULT_QUEUED is followed by RESULT_APPLIED or RESULT_REJECTED once the queued
+    // config is applied at startup or superseded by a newer one.
+    public static final int RESULT_APPLIED = 0;
+    public static final int RESULT_QUEUED = 1;
+    public static final int RESULT_REJECTED = 2;
+
+    // Result data: human-readable reason, and the diff as "key: old -> new" lines
+    public static final String RESULT_REASON = "reason";
+    public static final String RESULT_DIFF = "diff";
+
+    // Keys the native side can change while the Qt event loop is running.
+    // Anything else only takes effect before nativeStartService().
+    private static final Set<String> LIVE_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            KEY_TIMER_INTERVAL_MS,
+            KEY_LOG_LEVEL,
+            KEY_WORKER_COUNT
+    )));
+
+    public static final ServiceConfig DEFAULT = new Builder()
+            .setVersion(0)
+            .setTimerIntervalMs(1000)
+            .setLogLevel(LOG_LEVEL_INFO)
+            .setWorkerCount(1)
+            .setQueueSize(64)
+            .build();
+
+    private final int version;
+    private final int timerIntervalMs;
+    private final String logLevel;
+    private final int workerCount;
+    private final int queueSize;
+
+    private ServiceConfig(Builder builder) {
+        this.version = builder.version;
+        this.timerIntervalMs = builder.timerIntervalMs;
+        this.logLevel = builder.logLevel;
+        this.workerCount = builder.workerCount;
+        this.queueSize = builder.queueSize;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getTimerIntervalMs() {
+        return timerIntervalMs;
+    }
+
+    public String getLogLevel() {
+        return logLevel;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public static boolean isLiveKey(String key) {
+        return LIVE_KEYS.contains(key);
+    }
+
+    /**
+     * Returns the keys whose values differ from {@code other}, ignoring the version.
+     */
+    public List<String> diff(ServiceConfig other) {
+        List<String> changed = new ArrayList<>();
+        if (timerIntervalMs != other.timerIntervalMs) changed.add(KEY_TIMER_INTERVAL_MS);
+        if (!logLevel.equals(other.logLevel)) changed.add(KEY_LOG_LEVEL);
+        if (workerCount != other.workerCount) changed.add(KEY_WORKER_COUNT);
+        if (queueSize != other.queueSize) changed.add(KEY_QUEUE_SIZE);
+        return changed;
+    }
+
+    /**
+     * Returns the subset of {@link #diff(ServiceConfig)} that cannot be applied while running.
+     */
+    public List<String> restartRequiredKeys(ServiceConfig other) {
+        List<String> rejected = new ArrayList<>();
+        for (String key : diff(other)) {
+            if (!isLiveKey(key)) {
+                rejected.add(key);
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Describes one key of the diff as "key: old -> new" for logs and notifications.
+     */
+    public String describeChange(ServiceConfig previous, String key) {
+        return key + ": " + previous.valueOf(key) + " -> " + valueOf(key);
+    }
+
+    private Object valueOf(String key) {
+        switch (key) {
+            case KEY_VERSION: return version;
+            case KEY_TIMER_INTERVAL_MS: return timerIntervalMs;
+            case KEY_LOG_LEVEL: return logLevel;
+            case KEY_WORKER_COUNT: return workerCount;
+            case KEY_QUEUE_SIZE: return queueSize;
+            default: return null;
+        }
+    }
+
+    public String toJson() {
+        try {
+            JSONObject json = new JSONObject();
+            json.put(KEY_VERSION, version);
+            json.put(KEY_TIMER_INTERVAL_MS, timerIntervalMs);
+            json.put(KEY_LOG_LEVEL, logLevel);
+            json.put(KEY_WORKER_COUNT, workerCount);
+            json.put(KEY_QUEUE_SIZE, queueSize);
+            return json.toString();
+        } catch (JSONException e) {
+            // Only thrown for non-finite doubles, which this class never stores
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Bundle toBundle() {
+        Bundle bundle = new Bundle();
+        bundle.putInt(KEY_VERSION, version);
+        bundle.putInt(KEY_TIMER_INTERVAL_MS, timerIntervalMs);
+        bundle.putString(KEY_LOG_LEVEL, logLevel);
+        bundle.putInt(KEY_WORKER_COUNT, workerCount);
+        bundle.putInt(KEY_QUEUE_SIZE, queueSize);
+        return bundle;
+    }
+
+    /**
+     * Reads a config written by {@link #toBundle()}, or returns null if the bundle carries none.
+     * Keys missing from the bundle keep their value from {@code base}.
+     */
+    public static ServiceConfig fromBundle(Bundle bundle, ServiceConfig base) {
+        if (bundle == null || !bundle.containsKey(KEY_VERSION)) {
+            return null;
+        }
+
+        return new Builder()
+                .setVersion(bundle.getInt(KEY_VERSION, base.version))
+                .setTimerIntervalMs(bundle.getInt(KEY_TIMER_INTERVAL_MS, base.timerIntervalMs))
+                .setLogLevel(bundle.getString(KEY_LOG_LEVEL, base.logLevel))
+                .setWorkerCount(bundle.getInt(KEY_WORKER_COUNT, base.workerCount))
+                .setQueueSize(bundle.getInt(KEY_QUEUE_SIZE, base.queueSize))
+                .build();
+    }
+
+    static void sendResult(ResultReceiver receiver, int resultCode, String reason, ArrayList<String> diff) {
+        if (receiver == null) {
+            return;
+        }
+        Bundle data = new Bundle();
+        data.putString(RESULT_REASON, reason);
+        data.putStringArrayList(RESULT_DIFF, diff != null ? diff : new ArrayList<String>());
+        receiver.send(resultCode, data);
+    }
+
+    public Builder toBuilder() {
+        return new Builder()
+                .setVersion(version)
+                .setTimerIntervalMs(timerIntervalMs)
+                .setLogLevel(logLevel)
+                .setWorkerCount(workerCount)
+                .setQueueSize(queueSize);
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceConfig" + toJson();
+    }
+
+    public static final class Builder {
+        private int version;
+        private int timerIntervalMs;
+        private String logLevel;
+        private int workerCount;
+        private int queueSize;
+
+        public Builder setVersion(int version) {
+            this.version = version;
+            return this;
+        }
+
+        public Builder setTimerIntervalMs(int timerIntervalMs) {
+            this.timerIntervalMs = timerIntervalMs;
+            return this;
+        }
+
+        public Builder setLogLevel(String logLevel) {
+            this.logLevel = logLevel;
+            return this;
+        }
+
+        public Builder setWorkerCount(int workerCount) {
+            this.workerCount = workerCount;
+            return this;
+        }
+
+        public Builder setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+            return this;
+        }
+
+        public ServiceConfig build() {
+            if (version < 0) {
+                throw new IllegalArgumentException("version must be >= 0");
+            }
+            if (timerIntervalMs <= 0) {
+                throw new IllegalArgumentException("timerIntervalMs must be > 0");
+            }
+            if (!LOG_LEVELS.contains(logLevel)) {
+                throw new IllegalArgumentException("logLevel must be one of " + LOG_LEVELS + ", got " + logLevel);
+            }
+            if (workerCount <= 0) {
+                throw new IllegalArgumentException("workerCount must be > 0");
+            }
+            if (queueSize <= 0) {
+                throw new IllegalArgumentException("queueSize must be > 0");
+            }
+            return new ServiceConfig(this);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.qtproject.qtservice;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Messenger;
+import android.os.RemoteException;
+import android.util.Log;
+
+/**
+ * Client side of StatusPublisher.
+ * Binds to the service class chosen by QtServiceHost, subscribes to the requested topics and merges the
+ * delta batches into a full snapshot before handing it to the listener.
+ *
+ * Binds without BIND_AUTO_CREATE, so observing never starts or keeps the service alive.
+ */
+public class StatusClient {
+    private static final String TAG = "QtServiceStatusClient";
+
+    public interface Listener {
+        /**
+         * Called on the main thread with the keys that changed and the merged snapshot.
+         */
+        void onStatusChanged(Bundle changed, Bundle snapshot);
+    }
+
+    public interface MetricsListener {
+        void onMetrics(Bundle metrics);
+    }
+
+    private final Context context;
+    private final Class<? extends QtServiceWrapper> serviceClass;
+    private final int topics;
+    private final int maxRateHz;
+    private final Listener listener;
+    private final Bundle snapshot = new Bundle();
+    private final Messenger replyMessenger;
+
+    private Messenger service;
+    private boolean bound = false;
+    private MetricsListener pendingMetricsListener;
+    private String clientName;
+
+    private final ServiceConnection connection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder binder) {
+            service = new Messenger(binder);
+            Log.d(TAG, "✓ Connected to Qt service status publisher");
+
+            Message msg = Message.obtain(null, StatusPublisher.MSG_SUBSCRIBE);
+            Bundle data = new Bundle();
+            data.putInt(StatusPublisher.EXTRA_TOPICS, topics);
+            data.putInt(StatusPublisher.EXTRA_MAX_RATE_HZ, maxRateHz);
+            data.putString(StatusPublisher.EXTRA_CLIENT_NAME, clientName);
+            msg.setData(data);
+            send(msg);
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            // Publisher state is gone; the next connection starts from a full snapshot
+            service = null;
+            snapshot.clear();
+            Log.w(TAG, "Disconnected from Qt service status publisher");
+        }
+    };
+
+    public StatusClient(Context context, Class<? extends QtServiceWrapper> serviceClass,
+                        int topics, int maxRateHz, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.serviceClass = serviceClass;
+        this.topics = topics;
+        this.maxRateHz = maxRateHz;
+        this.listener = listener;
+        this.replyMessenger = new Messenger(new Handler(Looper.getMainLooper(), this::handleMessage));
+    }
+
+    /**
+     * Names this subscriber in the publisher's metrics and logs; without a name it is
+     * identified by uid only. Takes effect on the next subscribe, so call before connect().
+     */
+    public StatusClient setClientName(String clientName) {
+        this.clientName = clientName;
+        return this;
+    }
+
+    public void connect() {
+        if (bound) {
+            return;
+        }
+        Intent intent = new Intent(context, serviceClass);
+        bound = context.bindService(intent, connection, 0);
+        if (!bound) {
+            Log.e(TAG, "Failed to bind to Qt service");
+        }
+    }
+
+    public void disconnect() {
+        if (!bound) {
+            return;
+        }
+        if (service != null) {
+            send(Message.obtain(null, StatusPublisher.MSG_UNSUBSCRIBE));
+        }
+        context.unbindService(connection);
+        bound = false;
+        service = null;
+        snapshot.clear();
+    }
+
+    public boolean isConnected() {
+        return service != null;
+    }
+
+    /**
+     * Asks the service to run StatusPublisher#publishBurst(long) on TOPIC_BENCHMARK.
+     * Only honored by debuggable builds; used by QtServiceHostBenchmark.
+     */
+    public void requestPublishBurst(int durationMs) {
+        if (service == null) {
+            Log.w(TAG, "Publish burst requested while not connected");
+            return;
+        }
+        send(Message.obtain(null, StatusPublisher.MSG_PUBLISH_BURST, durationMs, 0));
+    }
+
+    /**
+     * Requests per-subscriber lag and dropped-delta metrics from the publisher, one Bundle
+     * per subscriber keyed by StatusPublisher.METRIC_CLIENT_ID.
+     */
+    public void requestMetrics(MetricsListener metricsListener) {
+        if (service == null) {
+            Log.w(TAG, "Metrics requested while not connected");
+            return;
+        }
+        pendingMetricsListener = metricsListener;
+        send(Message.obtain(null, StatusPublisher.MSG_GET_METRICS));
+    }
+
+    private boolean handleMessage(Message msg) {
+        switch (msg.what) {
+            case StatusPublisher.MSG_STATUS_BATCH:
+                Bundle changed = msg.getData();
+                snapshot.putAll(changed);
+                listener.onStatusChanged(changed, new Bundle(snapshot));
+                // Acking after the listener runs lets the publisher conflate for slow consumers
+                send(Message.obtain(null, StatusPublisher.MSG_ACK, msg.arg1, 0));
+                return true;
+            case StatusPublisher.MSG_METRICS:
+                if (pendingMetricsListener != null) {
+                    pendingMetricsListener.onMetrics(msg.getData());
+                    pendingMetricsListener = null;
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void send(Message msg) {
+        if (service == null) {
+            return;
+        }
+        msg.replyTo = replyMessenger;
+        try {
+            service.send(msg);
+        } catch (RemoteException e) {
+            Log.w(TAG, "Failed to reach Qt service status publisher", e);
+        }
+    }
+}
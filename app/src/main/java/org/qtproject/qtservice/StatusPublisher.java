@@ -0,0 +1,410 @@
+package org.qtproject.qtservice;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.IBinder;
+import android.os.Message;
+import android.os.Messenger;
+import android.os.RemoteException;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Publish/subscribe status fan-out for QtServiceWrapper.
+ * Bound clients subscribe to topics through a Messenger and receive delta-encoded
+ * batches at their own maximum rate. A subscriber that hasn't acked its previous
+ * batches gets its pending values conflated rather than queued, so it never
+ * blocks the service or the other subscribers.
+ *
+ * All subscriber state is confined to the publisher's HandlerThread.
+ */
+public class StatusPublisher {
+    private static final String TAG = "QtServiceStatus";
+
+    public static final int TOPIC_LIFECYCLE = 1;
+    public static final int TOPIC_COUNTERS = 1 << 1;
+    public static final int TOPIC_HEARTBEAT = 1 << 2;
+    public static final int TOPIC_BENCHMARK = 1 << 3;
+    public static final int TOPIC_ALL = TOPIC_LIFECYCLE | TOPIC_COUNTERS | TOPIC_HEARTBEAT | TOPIC_BENCHMARK;
+
+    // Client -> service
+    public static final int MSG_SUBSCRIBE = 1;     // replyTo, data: EXTRA_TOPICS, EXTRA_MAX_RATE_HZ, EXTRA_CLIENT_NAME
+    public static final int MSG_UNSUBSCRIBE = 2;   // replyTo
+    public static final int MSG_ACK = 3;           // replyTo, arg1: acked sequence number
+    public static final int MSG_GET_METRICS = 4;   // replyTo
+    public static final int MSG_PING = 5;          // replyTo, arg1: echoed back in MSG_PONG; handled by the service
+    public static final int MSG_APPLY_CONFIG = 6;  // data: EXTRA_CONFIG, EXTRA_RESULT_RECEIVER; handled by the service
+    public static final int MSG_PUBLISH_BURST = 7; // arg1: duration in ms; handled by debuggable services only
+
+    // Service -> client
+    public static final int MSG_STATUS_BATCH = 100; // arg1: sequence number, data: changed keys only
+    public static final int MSG_METRICS = 101;      // data: one Bundle per subscriber, keyed by METRIC_CLIENT_ID
+    public static final int MSG_PONG = 102;         // arg1: value from MSG_PING, arg2: native running (1/0)
+
+    public static final String EXTRA_TOPICS = "topics";
+    public static final String EXTRA_MAX_RATE_HZ = "maxRateHz";
+    public static final String EXTRA_CLIENT_NAME = "clientName";
+    public static final String EXTRA_CONFIG = "config";
+    public static final String EXTRA_RESULT_RECEIVER = "resultReceiver";
+
+    // TOPIC_LIFECYCLE keys
+    public static final String KEY_STATE = "lifecycle.state";
+    public static final String KEY_STATE_DETAIL = "lifecycle.detail";
+    // TOPIC_COUNTERS keys
+    public static final String KEY_START_COUNT = "counters.startCount";
+    public static final String KEY_CONFIG_VERSION = "counters.configVersion";
+    public static final String KEY_CONFIG_APPLIED = "counters.configApplied";
+    public static final String KEY_CONFIG_REJECTED = "counters.configRejected";
+    // TOPIC_HEARTBEAT keys
+    public static final String KEY_UPTIME_MS = "heartbeat.uptimeMs";
+    public static final String KEY_NATIVE_RUNNING = "heartbeat.nativeRunning";
+    // TOPIC_BENCHMARK keys, only published by publishBurst()
+    public static final String KEY_BURST_SEQ = "benchmark.burstSeq";
+    public static final String KEY_BURST_END = "benchmark.burstEnd";
+
+    public static final String STATE_CREATED = "CREATED";
+    public static final String STATE_INITIALIZING = "INITIALIZING";
+    public static final String STATE_RUNNING = "RUNNING";
+    public static final String STATE_ERROR = "ERROR";
+    public static final String STATE_STOPPED = "STOPPED";
+
+    // "<client name or uid>#<n>", unique per subscription
+    public static final String METRIC_CLIENT_ID = "clientId";
+    public static final String METRIC_CLIENT_NAME = "clientName";
+    public static final String METRIC_UID = "uid";
+    public static final String METRIC_TOPICS = "topics";
+    public static final String METRIC_LAG_BATCHES = "lagBatches";
+    public static final String METRIC_LAG_MS = "lagMs";
+    public static final String METRIC_DROPPED_DELTAS = "droppedDeltas";
+    public static final String METRIC_SENT_BATCHES = "sentBatches";
+
+    private static final int DEFAULT_MAX_RATE_HZ = 4;
+    private static final int MAX_RATE_HZ_LIMIT = 60;
+    // Batches a subscriber may have in flight before further updates are conflated
+    private static final int MAX_UNACKED_BATCHES = 2;
+
+    private final HandlerThread thread;
+    private final Handler handler;
+    private final Messenger messenger;
+    // Service commands arriving on the same Messenger; runs on the publisher thread
+    private final Handler.Callback commandHandler;
+
+    // Latest value of every key, with the topic it belongs to
+    private final Map<String, Object> values = new HashMap<>();
+    private final Map<String, Integer> keyTopics = new HashMap<>();
+    private final Map<IBinder, Subscriber> subscribers = new HashMap<>();
+    private int nextSubscriberId = 1;
+    private int burstSeq = 0;
+
+    public StatusPublisher(Handler.Callback commandHandler) {
+        this.commandHandler = commandHandler;
+        thread = new HandlerThread("QtServiceStatusPublisher");
+        thread.start();
+        handler = new Handler(thread.getLooper(), this::handleMessage);
+        messenger = new Messenger(handler);
+    }
+
+    public IBinder getBinder() {
+        return messenger.getBinder();
+    }
+
+    /**
+     * Publishes a value. Safe to call from any thread; only String, Integer, Long and
+     * Boolean values are supported.
+     */
+    public void publish(int topic, String key, Object value) {
+        handler.post(() -> publishInternal(topic, key, value));
+    }
+
+    /**
+     * Publishes KEY_BURST_SEQ as fast as this thread allows for {@code durationMs}, then
+     * KEY_BURST_END with the last sequence number. Measures fan-out throughput; subscribers
+     * see at most their maxRateHz batches per second with the values in between conflated.
+     */
+    public void publishBurst(long durationMs) {
+        handler.post(() -> {
+            long endAt = SystemClock.uptimeMillis() + durationMs;
+            Runnable tick = new Runnable() {
+                @Override
+                public void run() {
+                    if (SystemClock.uptimeMillis() >= endAt) {
+                        publishInternal(TOPIC_BENCHMARK, KEY_BURST_END, burstSeq);
+                        return;
+                    }
+                    publishInternal(TOPIC_BENCHMARK, KEY_BURST_SEQ, ++burstSeq);
+                    // Re-posted rather than looped so flushes and acks run during the burst
+                    handler.post(this);
+                }
+            };
+            tick.run();
+        });
+    }
+
+    /**
+     * Delivers whatever each subscriber still has pending, ignoring rate and unacked
+     * limits, then stops the publisher. Values published before this call are included.
+     */
+    public void shutdown() {
+        handler.post(() -> {
+            // Copied because a failed send removes the subscriber
+            for (Subscriber subscriber : new ArrayList<>(subscribers.values())) {
+                handler.removeCallbacks(subscriber.flushTask);
+                subscriber.flush(true);
+                subscriber.unlinkToDeath();
+            }
+            subscribers.clear();
+            thread.quitSafely();
+        });
+    }
+
+    private void publishInternal(int topic, String key, Object value) {
+        if (Objects.equals(values.get(key), value)) {
+            return;
+        }
+        values.put(key, value);
+        keyTopics.put(key, topic);
+
+        for (Subscriber subscriber : subscribers.values()) {
+            if ((subscriber.topics & topic) != 0) {
+                subscriber.enqueue(key, value);
+            }
+        }
+    }
+
+    private boolean handleMessage(Message msg) {
+        switch (msg.what) {
+            case MSG_SUBSCRIBE:
+                subscribe(msg.replyTo, msg.getData(), msg.sendingUid);
+                return true;
+            case MSG_UNSUBSCRIBE:
+                if (msg.replyTo != null) {
+                    removeSubscriber(msg.replyTo.getBinder(), "unsubscribed");
+                }
+                return true;
+            case MSG_ACK:
+                if (msg.replyTo != null) {
+                    Subscriber subscriber = subscribers.get(msg.replyTo.getBinder());
+                    if (subscriber != null) {
+                        subscriber.ack(msg.arg1);
+                    }
+                }
+                return true;
+            case MSG_GET_METRICS:
+                sendMetrics(msg.replyTo);
+                return true;
+            default:
+                if (commandHandler != null && commandHandler.handleMessage(msg)) {
+                    return true;
+                }
+                Log.w(TAG, "Unknown message: " + msg.what);
+                return false;
+        }
+    }
+
+    private void subscribe(Messenger replyTo, Bundle data, int uid) {
+        if (replyTo == null) {
+            Log.w(TAG, "Subscribe without replyTo ignored");
+            return;
+        }
+
+        int topics = data.getInt(EXTRA_TOPICS, TOPIC_ALL) & TOPIC_ALL;
+        int maxRateHz = data.getInt(EXTRA_MAX_RATE_HZ, DEFAULT_MAX_RATE_HZ);
+        maxRateHz = Math.max(1, Math.min(maxRateHz, MAX_RATE_HZ_LIMIT));
+
+        IBinder binder = replyTo.getBinder();
+        removeSubscriber(binder, "resubscribed");
+
+        String name = data.getString(EXTRA_CLIENT_NAME);
+        String id = (name != null ? name : "uid" + uid) + "#" + nextSubscriberId++;
+
+        Subscriber subscriber = new Subscriber(replyTo, id, name, uid, topics, 1000L / maxRateHz);
+        try {
+            binder.linkToDeath(subscriber, 0);
+        } catch (RemoteException e) {
+            Log.w(TAG, "Subscriber died before subscribing");
+            return;
+        }
+        subscribers.put(binder, subscriber);
+        Log.d(TAG, "✓ Subscriber " + id + " added (topics=" + topics + ", maxRateHz=" + maxRateHz
+                + ", total=" + subscribers.size() + ")");
+
+        // First batch carries the full current state; everything after is a delta
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if ((topics & keyTopics.get(entry.getKey())) != 0) {
+                subscriber.enqueue(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void removeSubscriber(IBinder binder, String reason) {
+        Subscriber subscriber = subscribers.remove(binder);
+        if (subscriber != null) {
+            subscriber.unlinkToDeath();
+            handler.removeCallbacks(subscriber.flushTask);
+            Log.d(TAG, "Subscriber " + subscriber.id + " removed (" + reason + "), dropped deltas: " + subscriber.droppedDeltas
+                    + ", remaining: " + subscribers.size());
+        }
+    }
+
+    private void sendMetrics(Messenger replyTo) {
+        if (replyTo == null) {
+            return;
+        }
+
+        Bundle metrics = new Bundle();
+        long now = SystemClock.uptimeMillis();
+        for (Subscriber subscriber : subscribers.values()) {
+            metrics.putBundle(subscriber.id, subscriber.metrics(now));
+        }
+
+        Message reply = Message.obtain(null, MSG_METRICS);
+        reply.setData(metrics);
+        try {
+            replyTo.send(reply);
+        } catch (RemoteException e) {
+            Log.w(TAG, "Failed to send metrics", e);
+        }
+    }
+
+    private static void putValue(Bundle bundle, String key, Object value) {
+        if (value instanceof String) {
+            bundle.putString(key, (String) value);
+        } else if (value instanceof Integer) {
+            bundle.putInt(key, (Integer) value);
+        } else if (value instanceof Long) {
+            bundle.putLong(key, (Long) value);
+        } else if (value instanceof Boolean) {
+            bundle.putBoolean(key, (Boolean) value);
+        } else {
+            bundle.putString(key, String.valueOf(value));
+        }
+    }
+
+    private class Subscriber implements IBinder.DeathRecipient {
+        final Messenger messenger;
+        final String id;
+        final String name;
+        final int uid;
+        final int topics;
+        final long minIntervalMs;
+
+        // Values last delivered, and values changed since then
+        final Map<String, Object> sent = new HashMap<>();
+        final Map<String, Object> pending = new LinkedHashMap<>();
+
+        // Send times of unacked batches, keyed by sequence number
+        final LinkedHashMap<Integer, Long> inFlight = new LinkedHashMap<>();
+
+        int nextSeq = 1;
+        long lastSendTime = 0;
+        long droppedDeltas = 0;
+        long sentBatches = 0;
+        boolean flushScheduled = false;
+
+        final Runnable flushTask = () -> {
+            flushScheduled = false;
+            flush(false);
+        };
+
+        Subscriber(Messenger messenger, String id, String name, int uid, int topics, long minIntervalMs) {
+            this.messenger = messenger;
+            this.id = id;
+            this.name = name;
+            this.uid = uid;
+            this.topics = topics;
+            this.minIntervalMs = minIntervalMs;
+        }
+
+        void enqueue(String key, Object value) {
+            if (pending.containsKey(key)) {
+                // Conflated: the subscriber will never see the overwritten value
+                droppedDeltas++;
+            }
+            pending.put(key, value);
+            scheduleFlush();
+        }
+
+        void ack(int seq) {
+            // Acks are cumulative
+            Iterator<Integer> it = inFlight.keySet().iterator();
+            while (it.hasNext() && it.next() <= seq) {
+                it.remove();
+            }
+            scheduleFlush();
+        }
+
+        void scheduleFlush() {
+            if (flushScheduled || pending.isEmpty() || inFlight.size() >= MAX_UNACKED_BATCHES) {
+                return;
+            }
+            flushScheduled = true;
+            long delay = Math.max(0, lastSendTime + minIntervalMs - SystemClock.uptimeMillis());
+            handler.postDelayed(flushTask, delay);
+        }
+
+        void flush(boolean force) {
+            if (!force && inFlight.size() >= MAX_UNACKED_BATCHES) {
+                return;
+            }
+
+            Bundle delta = new Bundle();
+            for (Map.Entry<String, Object> entry : pending.entrySet()) {
+                if (!Objects.equals(sent.get(entry.getKey()), entry.getValue())) {
+                    putValue(delta, entry.getKey(), entry.getValue());
+                }
+            }
+            if (delta.isEmpty()) {
+                pending.clear();
+                return;
+            }
+
+            int seq = nextSeq++;
+            Message msg = Message.obtain(null, MSG_STATUS_BATCH, seq, 0);
+            msg.setData(delta);
+            try {
+                // Messenger calls are one-way, so a slow client can't stall this thread
+                messenger.send(msg);
+            } catch (RemoteException e) {
+                removeSubscriber(messenger.getBinder(), "send failed: " + e.getMessage());
+                return;
+            }
+
+            sent.putAll(pending);
+            pending.clear();
+            lastSendTime = SystemClock.uptimeMillis();
+            inFlight.put(seq, lastSendTime);
+            sentBatches++;
+        }
+
+        Bundle metrics(long now) {
+            Bundle bundle = new Bundle();
+            bundle.putString(METRIC_CLIENT_ID, id);
+            bundle.putString(METRIC_CLIENT_NAME, name);
+            bundle.putInt(METRIC_UID, uid);
+            bundle.putInt(METRIC_TOPICS, topics);
+            bundle.putInt(METRIC_LAG_BATCHES, inFlight.size());
+            Iterator<Long> oldest = inFlight.values().iterator();
+            bundle.putLong(METRIC_LAG_MS, oldest.hasNext() ? now - oldest.next() : 0);
+            bundle.putLong(METRIC_DROPPED_DELTAS, droppedDeltas);
+            bundle.putLong(METRIC_SENT_BATCHES, sentBatches);
+            return bundle;
+        }
+
+        void unlinkToDeath() {
+            messenger.getBinder().unlinkToDeath(this, 0);
+        }
+
+        @Override
+        public void binderDied() {
+            handler.post(() -> removeSubscriber(messenger.getBinder(), "client died"));
+        }
+    }
+}